@@ -0,0 +1,35 @@
+import java.util.*;
+
+public class AppSendBuffer {
+    // Per-peer FIFO of APP_MSGs held back during the tentative checkpoint window
+    private Map<Integer, ArrayDeque<Message>> queues = new HashMap<>();
+    private int capacity;
+
+    public AppSendBuffer(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // Returns false if the queue for this peer is already at capacity
+    public boolean offer(int destId, Message msg) {
+        ArrayDeque<Message> queue = queues.computeIfAbsent(destId, k -> new ArrayDeque<>());
+        if (queue.size() >= capacity) return false;
+        queue.add(msg);
+        return true;
+    }
+
+    // Removes and returns everything buffered, grouped by destination
+    public Map<Integer, List<Message>> drain() {
+        Map<Integer, List<Message>> batches = new HashMap<>();
+        for (Map.Entry<Integer, ArrayDeque<Message>> e : queues.entrySet()) {
+            if (!e.getValue().isEmpty()) {
+                batches.put(e.getKey(), new ArrayList<>(e.getValue()));
+                e.getValue().clear();
+            }
+        }
+        return batches;
+    }
+
+    public static int sizeOf(Message msg) {
+        return msg.data == null ? 0 : msg.data.length;
+    }
+}
@@ -0,0 +1,140 @@
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.*;
+
+public class CheckpointCollector {
+    private Node node;
+    private Config config;
+    // File name prefix and sequence number of each new file since the last pass;
+    // the protocol and replica threads only enqueue
+    private BlockingQueue<Map.Entry<String, Integer>> commits = new LinkedBlockingQueue<>();
+    // Newest sequence seen per prefix (own checkpoints and each replicated source)
+    private Map<String, Integer> latestCommitted = new HashMap<>();
+
+    public CheckpointCollector(Node node) {
+        this.node = node;
+        this.config = node.config;
+    }
+
+    // A crash between tentative checkpoint and decision leaves the temp file behind
+    public void cleanOrphans() {
+        File temp = new File("temp_ckpt_" + node.id + ".tmp");
+        if (temp.exists()) {
+            if (temp.delete()) {
+                System.out.println("Node " + node.id + " removed orphaned tentative checkpoint");
+            } else {
+                System.err.println("Node " + node.id + " failed to remove orphaned tentative checkpoint");
+            }
+        }
+        // Same for a replica that was still being received. The directory may be shared
+        // with other nodes, so only touch sources this node is the buddy for.
+        for (Map.Entry<Integer, Integer> e : config.replicaBuddies.entrySet()) {
+            if (e.getValue() != node.id) continue;
+            String prefix = "replica_node" + e.getKey() + "_seq";
+            File[] partial = new File(".").listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(".tmp"));
+            if (partial != null) {
+                for (File f : partial) f.delete();
+            }
+        }
+    }
+
+    public void start() {
+        if (config.retainPolicy.equals("all")) return;
+        Thread t = new Thread(this::run);
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public void onCommit(int seqNumber) {
+        enqueue("ckpt_node" + node.id, seqNumber);
+    }
+
+    // Replicas stored for a buddy follow the same policy, per source node
+    public void onReplica(int sourceId, int seqNumber) {
+        enqueue("replica_node" + sourceId, seqNumber);
+    }
+
+    private void enqueue(String prefix, int seqNumber) {
+        if (config.retainPolicy.equals("all")) return;
+        commits.offer(new AbstractMap.SimpleEntry<>(prefix, seqNumber));
+    }
+
+    private void run() {
+        while (node.isActive()) {
+            try {
+                // Coalesce commits that piled up while the previous pass was running
+                List<Map.Entry<String, Integer>> pending = new ArrayList<>();
+                pending.add(commits.take());
+                commits.drainTo(pending);
+                Set<String> touched = new HashSet<>();
+                for (Map.Entry<String, Integer> e : pending) {
+                    latestCommitted.merge(e.getKey(), e.getValue(), Math::max);
+                    touched.add(e.getKey());
+                }
+                for (String prefix : touched) collect(prefix);
+            } catch(InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void collect(String prefix) throws InterruptedException {
+        File[] files = new File(".").listFiles();
+        if (files == null) return;
+
+        // Committed files of this series, newest first
+        Pattern pattern = Pattern.compile(Pattern.quote(prefix) + "_seq(\\d+)\\.out");
+        TreeMap<Integer, File> committed = new TreeMap<>(Collections.reverseOrder());
+        for (File f : files) {
+            Matcher m = pattern.matcher(f.getName());
+            if (m.matches()) committed.put(Integer.parseInt(m.group(1)), f);
+        }
+
+        // Newest committed sequence older than the latest one (the previous line)
+        int latest = latestCommitted.get(prefix);
+        int predecessor = latest;
+        for (int seq : committed.keySet()) {
+            if (seq < latest) {
+                predecessor = seq;
+                break;
+            }
+        }
+
+        List<File> victims = new ArrayList<>();
+        int rank = 0;
+        for (Map.Entry<Integer, File> e : committed.entrySet()) {
+            if (isExpired(e.getKey(), rank++, predecessor)) victims.add(e.getValue());
+        }
+
+        int deleted = 0;
+        for (int i = 0; i < victims.size(); i++) {
+            if (victims.get(i).delete()) {
+                deleted++;
+            } else {
+                System.err.println("Node " + node.id + " failed to delete " + victims.get(i).getName());
+            }
+            // Pause between batches so the collector does not monopolize the disk
+            if ((i + 1) % config.gcBatchSize == 0 && i + 1 < victims.size()) {
+                Thread.sleep(config.gcBatchPauseMs);
+            }
+        }
+        if (deleted > 0) {
+            System.out.println("Node " + node.id + " collected " + deleted + " old " + prefix + " file(s)");
+        }
+    }
+
+    private boolean isExpired(int seqNumber, int rank, int predecessor) {
+        switch (config.retainPolicy) {
+            case "last":
+                return rank >= config.retainCount;
+            case "line":
+                // Committing n locally does not mean every node has committed n. A node
+                // still tentative for n that crashes restarts with only n-1, so the
+                // previous line has to stay on disk alongside the newest one.
+                return seqNumber < predecessor;
+            default:
+                return false;
+        }
+    }
+}
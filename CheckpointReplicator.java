@@ -0,0 +1,221 @@
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+
+public class CheckpointReplicator {
+    private static final byte ACK = 1;
+    private static final byte NAK = 0;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8; // source, seq, length, crc
+
+    private Node node;
+    private Config config;
+    private int buddyId;
+    // Committed sequence numbers waiting to be shipped; the protocol thread only enqueues
+    private BlockingQueue<Integer> pending = new LinkedBlockingQueue<>();
+    private SocketChannel channel;
+
+    public CheckpointReplicator(Node node) {
+        this.node = node;
+        this.config = node.config;
+        this.buddyId = config.replicaBuddies.getOrDefault(node.id, -1);
+    }
+
+    public void start() {
+        if (buddyId != -1) {
+            Thread sender = new Thread(this::sendLoop);
+            sender.setDaemon(true);
+            // Replication is background work, protocol and app threads come first
+            sender.setPriority(Thread.MIN_PRIORITY);
+            sender.start();
+        }
+        if (config.replicaBuddies.containsValue(node.id)) {
+            Thread receiver = new Thread(this::listen);
+            receiver.setDaemon(true);
+            receiver.start();
+        }
+    }
+
+    public void onCommit(int seqNumber) {
+        if (buddyId != -1) pending.offer(seqNumber);
+    }
+
+    // --- SENDER ---
+    private void sendLoop() {
+        while (node.isActive()) {
+            int seq;
+            try {
+                seq = pending.take();
+            } catch(InterruptedException e) {
+                return;
+            }
+
+            File file = new File("ckpt_node" + node.id + "_seq" + seq + ".out");
+            boolean done = false;
+            for (int attempt = 1; attempt <= config.replicaRetries && !done; attempt++) {
+                if (!file.exists()) {
+                    // Already removed by the collector, nothing left to protect
+                    System.out.println("Node " + node.id + " skipping replication of seq " + seq + " (file gone)");
+                    break;
+                }
+                try {
+                    done = replicate(file, seq);
+                    if (!done) {
+                        System.err.println("Node " + node.id + " buddy " + buddyId + " rejected seq " + seq +
+                                           " (attempt " + attempt + ")");
+                    }
+                } catch(IOException | RuntimeException e) {
+                    // One bad attempt must not end replication for the rest of the run
+                    System.err.println("Node " + node.id + " error replicating seq " + seq + " to node " +
+                                       buddyId + ": " + e);
+                    closeChannel();
+                    try { Thread.sleep(1000); } catch(Exception ex) {}
+                }
+            }
+            if (done) {
+                System.out.println("Node " + node.id + " replicated seq " + seq + " to node " + buddyId);
+            } else if (file.exists()) {
+                System.err.println("Node " + node.id + " giving up on replicating seq " + seq + " to node " +
+                                   buddyId + " after " + config.replicaRetries + " attempt(s)");
+            }
+        }
+    }
+
+    private boolean replicate(File file, int seq) throws IOException {
+        SocketChannel ch = connect();
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long length = in.size();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(node.id).putInt(seq).putLong(length).putLong(checksum(in, length));
+            header.flip();
+            while (header.hasRemaining()) ch.write(header);
+
+            // Zero-copy from the page cache to the socket, paced to replicaRate bytes/s
+            long start = System.nanoTime();
+            long position = 0;
+            while (position < length) {
+                long count = Math.min(config.replicaChunkSize, length - position);
+                position += in.transferTo(position, count, ch);
+                throttle(start, position);
+            }
+
+            ByteBuffer reply = ByteBuffer.allocate(1);
+            while (reply.hasRemaining()) {
+                if (ch.read(reply) < 0) throw new EOFException("buddy closed connection");
+            }
+            return reply.get(0) == ACK;
+        }
+    }
+
+    private void throttle(long startNanos, long bytesSent) {
+        if (config.replicaRate <= 0) return;
+        long earliest = startNanos + bytesSent * 1_000_000_000L / config.replicaRate;
+        long wait = earliest - System.nanoTime();
+        if (wait > 0) {
+            try { Thread.sleep(wait / 1_000_000L, (int) (wait % 1_000_000L)); } catch(Exception e) {}
+        }
+    }
+
+    private SocketChannel connect() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            Config.NodeInfo info = config.nodes.get(buddyId);
+            channel = SocketChannel.open(new InetSocketAddress(info.host, info.port + config.replicaPortOffset));
+        }
+        return channel;
+    }
+
+    private void closeChannel() {
+        try { if (channel != null) channel.close(); } catch(IOException e) {}
+        channel = null;
+    }
+
+    // --- RECEIVER ---
+    private void listen() {
+        int port = config.nodes.get(node.id).port + config.replicaPortOffset;
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(port));
+            System.out.println("Node " + node.id + " accepting checkpoint replicas on port " + port);
+            while (node.isActive()) {
+                SocketChannel ch = server.accept();
+                Thread t = new Thread(() -> receive(ch));
+                t.setDaemon(true);
+                t.start();
+            }
+        } catch(IOException | RuntimeException e) {
+            if (node.isActive()) {
+                System.err.println("Node " + node.id + " replica listener failed: " + e);
+            }
+        }
+    }
+
+    private void receive(SocketChannel ch) {
+        try (SocketChannel c = ch) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            ByteBuffer buf = ByteBuffer.allocateDirect(config.replicaChunkSize);
+            while (node.isActive()) {
+                header.clear();
+                while (header.hasRemaining()) {
+                    if (c.read(header) < 0) return;
+                }
+                header.flip();
+                int source = header.getInt();
+                int seq = header.getInt();
+                long length = header.getLong();
+                long expected = header.getLong();
+
+                String name = "replica_node" + source + "_seq" + seq;
+                Path temp = Paths.get(name + ".tmp");
+                boolean ok;
+                try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ)) {
+                    // Only the send side is zero-copy (transferTo uses sendfile). transferFrom
+                    // from a socket copies through a temporary buffer anyway, so read
+                    // explicitly and keep a reliable end-of-stream check.
+                    long received = 0;
+                    while (received < length) {
+                        buf.clear();
+                        buf.limit((int) Math.min(buf.capacity(), length - received));
+                        if (c.read(buf) < 0) throw new EOFException("source closed connection");
+                        buf.flip();
+                        while (buf.hasRemaining()) received += out.write(buf);
+                    }
+                    out.force(false);
+                    ok = checksum(out, length) == expected;
+                }
+
+                if (ok) {
+                    Files.move(temp, Paths.get(name + ".out"), StandardCopyOption.REPLACE_EXISTING);
+                    node.collector.onReplica(source, seq);
+                    System.out.println("Node " + node.id + " stored replica of node " + source + " seq " + seq);
+                } else {
+                    Files.deleteIfExists(temp);
+                    System.err.println("Node " + node.id + " checksum mismatch on replica of node " +
+                                       source + " seq " + seq);
+                }
+                ByteBuffer reply = ByteBuffer.wrap(new byte[] { ok ? ACK : NAK });
+                while (reply.hasRemaining()) c.write(reply);
+            }
+        } catch(IOException e) {
+            // Source disconnected - it reconnects on the next commit
+        }
+    }
+
+    private static long checksum(FileChannel ch, long length) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        long position = 0;
+        while (position < length) {
+            buf.clear();
+            int n = ch.read(buf, position);
+            if (n < 0) break;
+            buf.flip();
+            crc.update(buf);
+            position += n;
+        }
+        return crc.getValue();
+    }
+}
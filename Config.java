@@ -7,6 +7,36 @@ public class Config {
     public Map<Integer, List<Integer>> neighbors = new HashMap<>();
     public List<Operation> operations = new ArrayList<>();
 
+    // Application workload (optional "key = value" lines after the neighbor lists)
+    public double appRate = 0;              // target APP_MSGs per second; 0 = legacy 0.5-2.5s random sleep
+    public int payloadSize = 0;             // bytes of filler attached to each APP_MSG
+    public String destination = "uniform";  // "uniform", "hotspot" or "zipf"
+    public int hotspotNode = -1;            // hotspot target; -1 = first neighbor
+    public double hotspotFraction = 0.8;    // share of sends that go to the hotspot
+    public double zipfSkew = 1.0;           // exponent for the zipf distribution
+    public long burstPeriodMs = 0;          // length of one quiet+burst cycle; 0 = no bursts
+    public long burstDurationMs = 0;        // length of the burst phase inside each cycle
+    public double burstFactor = 1.0;        // rate multiplier during the burst phase
+    public long seed = -1;                  // RNG seed (mixed with node id); -1 = unseeded
+    public long reportIntervalMs = -1;      // STATS interval; -1 = 5000 if any app.* setting is given, else off
+
+    // APP_MSG buffering while a tentative checkpoint is pending
+    public int bufferCapacity = 10000;      // max buffered APP_MSGs per peer
+    public String bufferSpill = "block";    // when a peer queue is full: "block" or "drop"
+
+    // Retention of committed checkpoint files
+    public String retainPolicy = "all";     // "all", "last" (keep retainCount newest) or "line"
+    public int retainCount = 3;             // checkpoints kept by the "last" policy
+    public int gcBatchSize = 16;            // deletes per batch
+    public long gcBatchPauseMs = 10;        // pause between batches
+
+    // Asynchronous replication of committed checkpoints to a buddy node
+    public Map<Integer, Integer> replicaBuddies = new HashMap<>(); // node id -> buddy id
+    public int replicaPortOffset = 1000;    // buddy listens on its port + offset
+    public long replicaRate = 1_000_000;    // bytes per second per sender; 0 = unthrottled
+    public int replicaChunkSize = 65536;    // bytes per transferTo call
+    public int replicaRetries = 3;          // attempts per checkpoint
+
     public static class NodeInfo {
         public int id;
         public String host;
@@ -5,6 +5,8 @@ import java.util.regex.*;
 public class ConfigParser {
     // Regex for tuples like (c,1) or (1,c)
     private static final Pattern TUPLE_PATTERN = Pattern.compile("\\(\\s*([a-zA-Z0-9]+)\\s*,\\s*([a-zA-Z0-9]+)\\s*\\)");
+    // Regex for optional settings like "app.rate = 2000"
+    private static final Pattern SETTING_PATTERN = Pattern.compile("^([a-zA-Z][a-zA-Z0-9_.]*)\\s*=\\s*(\\S+)$");
 
     public static Config parse(String filePath) throws IOException {
         Config config = new Config();
@@ -14,6 +16,7 @@ public class ConfigParser {
         boolean globalParamsFound = false;
         int nodesFound = 0;
         int neighborsFound = 0;
+        boolean appSettingsFound = false;
         
         while ((line = reader.readLine()) != null) {
             // Strip comments and trim
@@ -59,7 +62,14 @@ public class ConfigParser {
                 continue;
             }
 
-            // Phase 4: Operations
+            // Phase 4: Operations and optional settings
+            Matcher s = SETTING_PATTERN.matcher(line);
+            if (s.matches()) {
+                applySetting(config, s.group(1), s.group(2));
+                if (s.group(1).startsWith("app.")) appSettingsFound = true;
+                continue;
+            }
+
             Matcher m = TUPLE_PATTERN.matcher(line);
             if (m.find()) {
                 String t1 = m.group(1);
@@ -74,9 +84,107 @@ public class ConfigParser {
             }
         }
         reader.close();
+        
+        // Stay quiet on plain configs so they keep the original output
+        if (config.reportIntervalMs < 0) {
+            config.reportIntervalMs = appSettingsFound ? 5000 : 0;
+        }
+        
+        // The default replica.port.offset never went through applySetting
+        if (!config.replicaBuddies.isEmpty()) {
+            try {
+                portOffset(config, config.replicaPortOffset);
+            } catch (IllegalArgumentException e) {
+                System.err.println("replica.port.offset " + config.replicaPortOffset +
+                                   " gives an invalid port, replication disabled");
+                config.replicaBuddies.clear();
+            }
+        }
         return config;
     }
 
+    private static void applySetting(Config config, String key, String value) {
+        try {
+            switch (key) {
+                case "app.rate":            config.appRate = atLeast(Double.parseDouble(value), 0); break;
+                case "app.payload":         config.payloadSize = atLeast(Integer.parseInt(value), 0); break;
+                case "app.destination":     config.destination = value; break;
+                case "app.hotspot":         config.hotspotNode = Integer.parseInt(value); break;
+                case "app.hotspot.fraction": config.hotspotFraction = Double.parseDouble(value); break;
+                case "app.zipf.skew":       config.zipfSkew = Double.parseDouble(value); break;
+                case "app.burst.period":    config.burstPeriodMs = Long.parseLong(value); break;
+                case "app.burst.duration":  config.burstDurationMs = Long.parseLong(value); break;
+                case "app.burst.factor":    config.burstFactor = above(Double.parseDouble(value), 0); break;
+                case "app.seed":            config.seed = Long.parseLong(value); break;
+                case "report.interval":     config.reportIntervalMs = atLeast(Long.parseLong(value), 0); break;
+                case "buffer.capacity":     config.bufferCapacity = atLeast(Integer.parseInt(value), 1); break;
+                case "buffer.spill":        config.bufferSpill = oneOf(key, value, "block", "drop"); break;
+                case "retain.policy":       config.retainPolicy = oneOf(key, value, "all", "last", "line"); break;
+                case "retain.count":        config.retainCount = atLeast(Integer.parseInt(value), 1); break;
+                case "gc.batch":            config.gcBatchSize = atLeast(Integer.parseInt(value), 1); break;
+                case "gc.pause":            config.gcBatchPauseMs = atLeast(Long.parseLong(value), 0); break;
+                case "replica.port.offset": config.replicaPortOffset = portOffset(config, Integer.parseInt(value)); break;
+                case "replica.rate":        config.replicaRate = atLeast(Long.parseLong(value), 0); break;
+                case "replica.chunk":       config.replicaChunkSize = atLeast(Integer.parseInt(value), 1); break;
+                case "replica.retries":     config.replicaRetries = atLeast(Integer.parseInt(value), 1); break;
+                default:
+                    // Per-node buddy: "replica.buddy.<nodeId> = <buddyId>"
+                    if (key.startsWith("replica.buddy.")) {
+                        int nodeId = Integer.parseInt(key.substring("replica.buddy.".length()));
+                        int buddyId = Integer.parseInt(value);
+                        // Node definitions are parsed by now, both ids must name real nodes
+                        if (!config.nodes.containsKey(nodeId) || !config.nodes.containsKey(buddyId)
+                                || nodeId == buddyId) {
+                            throw new IllegalArgumentException();
+                        }
+                        config.replicaBuddies.put(nodeId, buddyId);
+                        break;
+                    }
+                    System.err.println("Ignoring unknown config setting: " + key);
+            }
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException; the default stays in place
+            System.err.println("Ignoring invalid value for " + key + ": " + value);
+        }
+    }
+
+    private static String oneOf(String key, String value, String... allowed) {
+        if (!Arrays.asList(allowed).contains(value)) {
+            System.err.println("Unknown " + key + " '" + value + "', expected one of " + Arrays.toString(allowed));
+            throw new IllegalArgumentException();
+        }
+        return value;
+    }
+
+    // Every node's replica port (its port + offset) must be a valid TCP port
+    private static int portOffset(Config config, int offset) {
+        for (Config.NodeInfo info : config.nodes.values()) {
+            long port = (long) info.port + offset;
+            if (port < 1 || port > 65535) throw new IllegalArgumentException();
+        }
+        return offset;
+    }
+
+    private static int atLeast(int v, int min) {
+        if (v < min) throw new IllegalArgumentException();
+        return v;
+    }
+
+    private static long atLeast(long v, long min) {
+        if (v < min) throw new IllegalArgumentException();
+        return v;
+    }
+
+    private static double atLeast(double v, double min) {
+        if (!(v >= min)) throw new IllegalArgumentException();
+        return v;
+    }
+
+    private static double above(double v, double min) {
+        if (!(v > min)) throw new IllegalArgumentException();
+        return v;
+    }
+
     private static boolean isInt(String s) {
         try { Integer.parseInt(s); return true; } catch(Exception e) { return false; }
     }
@@ -17,6 +17,9 @@ public class KooTouegProtocol {
     
     // CRITICAL: Frozen vector clock at checkpoint time
     private int[] frozenVectorClock = null;
+    
+    // Wall-clock ms when this node entered the current round (for latency stats)
+    private long roundStartTime = 0;
 
     public KooTouegProtocol(Node node) {
         this.node = node;
@@ -27,6 +30,7 @@ public class KooTouegProtocol {
         resetState(seqNumber, node.id);
         this.isParticipating = true;
         this.parentId = -1; 
+        this.roundStartTime = System.currentTimeMillis();
         
         // CRITICAL: Freeze vector clock state NOW, before sending checkpoint requests
         // No need to tick - checkpoint protocol messages don't advance clocks
@@ -43,6 +47,11 @@ public class KooTouegProtocol {
         }
     }
 
+    // True between taking the tentative checkpoint and the COMMIT/ABORT decision
+    public boolean isInTentativeWindow() {
+        return isParticipating;
+    }
+
     // --- COHORT ---
     public void handleMessage(Message msg) {
         switch (msg.type) {
@@ -85,6 +94,7 @@ public class KooTouegProtocol {
             resetState(msg.seqNumber, initId);
             this.parentId = msg.senderId;
             this.isParticipating = true;
+            this.roundStartTime = System.currentTimeMillis();
             
             // CRITICAL: Freeze vector clock state NOW, before sending requests to children
             // This ensures we capture state at the moment we joined, not after message exchanges
@@ -227,6 +237,7 @@ public class KooTouegProtocol {
         
         // Check if we're initiator BEFORE resetting
         boolean wasInitiator = (node.id == initiatorId);
+        node.stats.recordCheckpointRound(System.currentTimeMillis() - roundStartTime);
         
         // Reset state completely
         isParticipating = false;
@@ -236,6 +247,9 @@ public class KooTouegProtocol {
         expectedReplies.clear();
         receivedNo = false;
         
+        // Decision messages are already out, release the held-back application sends
+        node.flushAppSends();
+        
         if (wasInitiator) {
             node.broadcastFinished();
         }
@@ -269,6 +283,8 @@ public class KooTouegProtocol {
         if (temp.exists()) {
             if (temp.renameTo(perm)) {
                 System.out.println("Node " + node.id + " COMMITTED seq " + activeSeqNumber);
+                node.collector.onCommit(activeSeqNumber);
+                node.replicator.onCommit(activeSeqNumber);
             } else {
                 System.err.println("Node " + node.id + " failed to rename checkpoint file");
             }
@@ -16,6 +16,8 @@ public class Message implements Serializable {
     public String payload; // "YES" or "NO"
     public int seqNumber;  // Checkpoint Sequence Number
     public int initiatorId; // ID of checkpoint initiator
+    public byte[] data;     // Application payload (APP_MSG only)
+    public long sendTime;   // Wall-clock ms when the APP_MSG was generated
 
     public Message(Type type, int senderId, int[] vectorClock, String payload, int seqNumber) {
         this(type, senderId, vectorClock, payload, seqNumber, -1);
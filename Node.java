@@ -1,14 +1,29 @@
 import java.io.*;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 public class Node {
     public int id;
     public Config config;
     public VectorClock vClock;
-    private Map<Integer, ObjectOutputStream> outputStreams = new HashMap<>();
+    public WorkloadStats stats = new WorkloadStats();
+    public CheckpointCollector collector;
+    public CheckpointReplicator replicator;
+    private Map<Integer, PeerChannel> peers = new ConcurrentHashMap<>();
     private ServerSocket serverSocket;
+    // Readers only enqueue; a single dispatcher thread processes in arrival order.
+    // The bound makes a slow dispatcher stall the readers, which pushes back on
+    // the senders through TCP. The dispatcher itself never blocks on a socket.
+    private static final int INBOX_CAPACITY = 1000;
+    private BlockingQueue<Message> inbox = new LinkedBlockingQueue<>(INBOX_CAPACITY);
+    // APP_MSGs queued for one peer before the application is made to wait
+    private static final int MAX_PENDING_APP_SENDS = 256;
+    // Messages written between stream resets; bounds the ObjectOutputStream handle table
+    // without re-sending class descriptors on every message
+    private static final int RESET_INTERVAL = 256;
     private KooTouegProtocol ktProtocol;
+    private AppSendBuffer sendBuffer;
     
     // Logic Flow
     private int currentOpIndex = 0;
@@ -17,15 +32,36 @@ public class Node {
     // CRITICAL: Track which operations we've already processed
     private Set<Integer> processedOperations = new HashSet<>();
 
+    // Outgoing connection to one neighbor; only its writer thread touches the stream
+    private static class PeerChannel {
+        ObjectOutputStream out;
+        BlockingQueue<Message> queue = new LinkedBlockingQueue<>();
+        int pendingApp = 0;     // APP_MSGs queued but not yet written (guarded by this)
+        boolean closed = false; // set by the writer after a send error (guarded by this)
+
+        PeerChannel(ObjectOutputStream out) {
+            this.out = out;
+        }
+    }
+
     public Node(int id, Config config) {
         this.id = id;
         this.config = config;
         this.vClock = new VectorClock(config.numNodes, id);
         this.ktProtocol = new KooTouegProtocol(this);
+        this.sendBuffer = new AppSendBuffer(config.bufferCapacity);
+        this.collector = new CheckpointCollector(this);
+        this.replicator = new CheckpointReplicator(this);
     }
 
     public void start() {
+        // 0. Checkpoint storage housekeeping
+        collector.cleanOrphans();
+        collector.start();
+        replicator.start();
+        
         // 1. Listen
+        new Thread(this::dispatch).start();
         new Thread(this::listen).start();
         
         // 2. Wait for system startup
@@ -38,7 +74,7 @@ public class Node {
         try { Thread.sleep(5000); } catch(Exception e){}
         
         // 5. App Simulation
-        new Thread(this::simulateApp).start();
+        new Thread(new WorkloadGenerator(this)).start();
 
         // 6. Check if I start the first operation
         checkAndStartOperation();
@@ -122,22 +158,33 @@ public class Node {
 
     private void handleClient(Socket s) {
         try {
-            ObjectInputStream ois = new ObjectInputStream(s.getInputStream());
+            ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(s.getInputStream()));
             while(active) {
                 Message msg = (Message) ois.readObject();
-                processMessage(msg);
+                inbox.put(msg);
             }
         } catch(Exception e) {
             // Connection closed or error - normal during shutdown
         }
     }
 
+    private void dispatch() {
+        while(active) {
+            try {
+                processMessage(inbox.take());
+            } catch(InterruptedException e) {
+                return;
+            }
+        }
+    }
+
     private synchronized void processMessage(Message msg) {
         if (msg.vectorClock != null) vClock.update(msg.vectorClock);
         
         switch(msg.type) {
             case APP_MSG:
-                // Clock updated, done.
+                // Clock updated, just account for the delivery
+                stats.recordReceived(msg);
                 break;
                 
             case OP_FINISHED:
@@ -199,8 +246,13 @@ public class Node {
                 for (int retry = 0; retry < 5 && !connected; retry++) {
                     try {
                         Socket s = new Socket(info.host, info.port);
-                        ObjectOutputStream oos = new ObjectOutputStream(s.getOutputStream());
-                        outputStreams.put(info.id, oos);
+                        ObjectOutputStream oos = new ObjectOutputStream(
+                            new BufferedOutputStream(s.getOutputStream()));
+                        oos.flush(); // push the stream header so the peer's reader can start
+                        PeerChannel peer = new PeerChannel(oos);
+                        peers.put(info.id, peer);
+                        int destId = info.id;
+                        new Thread(() -> writeLoop(destId, peer)).start();
                         connected = true;
                         System.out.println("Node " + id + " connected to node " + info.id);
                     } catch(IOException e) {
@@ -215,40 +267,126 @@ public class Node {
         }
     }
 
-    public synchronized void sendMessage(int destId, Message msg) {
-        try {
-            if (outputStreams.containsKey(destId)) {
+    public void sendMessage(int destId, Message msg) {
+        sendBatch(destId, Collections.singletonList(msg));
+    }
+
+    // Stamps the messages and hands them to the peer's writer thread; never blocks on I/O.
+    // The peer lock keeps queue order equal to clock order for that peer.
+    private void sendBatch(int destId, List<Message> msgs) {
+        PeerChannel peer = peers.get(destId);
+        if (peer == null) return;
+        synchronized (peer) {
+            if (peer.closed) return;
+            for (Message msg : msgs) {
                 // Tick clock ONLY for application messages, NOT for checkpoint protocol messages
-                if(msg.type == Message.Type.APP_MSG) {
-                    vClock.tick();
+                if (msg.type == Message.Type.APP_MSG) {
+                    msg.vectorClock = vClock.tickAndGet();
+                    peer.pendingApp++;
+                } else if (msg.vectorClock == null) {
+                    // Attach clock if not present
+                    msg.vectorClock = vClock.getClockArray();
+                }
+                peer.queue.add(msg);
+            }
+        }
+    }
+
+    // Only this thread writes to the peer's stream, so socket I/O never holds the Node monitor
+    private void writeLoop(int destId, PeerChannel peer) {
+        int sinceReset = 0;
+        try {
+            while (active) {
+                Message msg = peer.queue.take();
+                peer.out.writeObject(msg);
+                if (++sinceReset >= RESET_INTERVAL) {
+                    peer.out.reset();
+                    sinceReset = 0;
                 }
                 
-                // Attach clock if not present
-                if (msg.vectorClock == null) {
-                    msg.vectorClock = vClock.getClockArray();
+                if (msg.type == Message.Type.APP_MSG) {
+                    stats.recordSent(msg);
+                    synchronized (peer) {
+                        peer.pendingApp--;
+                        peer.notifyAll();
+                    }
                 }
                 
-                outputStreams.get(destId).writeObject(msg);
-                outputStreams.get(destId).flush();
-                outputStreams.get(destId).reset();
+                // Flush once the queue is drained so bursts go out as one batch
+                if (peer.queue.isEmpty()) peer.out.flush();
             }
         } catch(IOException e) { 
             System.err.println("Node " + id + " error sending to " + destId + ": " + e.getMessage());
+        } catch(InterruptedException e) {
+            // Shutting down
+        }
+        synchronized (peer) {
+            peer.closed = true;
+            peer.notifyAll();
         }
     }
 
-    private void simulateApp() {
-        Random rand = new Random();
-        List<Integer> neighbors = config.neighbors.get(id);
-        if (neighbors == null) return;
+    // Application sends are held back per peer while a tentative checkpoint is pending
+    public void sendAppMessage(int destId, Message msg) {
+        PeerChannel peer = peers.get(destId);
+        if (peer == null) return;
         
-        while(active) {
-            try { Thread.sleep(rand.nextInt(2000) + 500); } catch(Exception e){}
-            if (!neighbors.isEmpty()) {
-                int target = neighbors.get(rand.nextInt(neighbors.size()));
-                sendMessage(target, new Message(Message.Type.APP_MSG, id, null, null, 0));
+        // Backpressure from a slow peer: wait for the writer, outside the Node monitor
+        synchronized (peer) {
+            while (peer.pendingApp >= MAX_PENDING_APP_SENDS && !peer.closed) {
+                try {
+                    peer.wait();
+                } catch(InterruptedException e) {
+                    return;
+                }
+            }
+        }
+        
+        synchronized (this) {
+            sendAppMessageLocked(destId, msg);
+        }
+    }
+
+    // The window check and the clock tick must be atomic with respect to taking a checkpoint
+    private void sendAppMessageLocked(int destId, Message msg) {
+        long blockedSince = 0;
+        try {
+            while (ktProtocol.isInTentativeWindow()) {
+                if (sendBuffer.offer(destId, msg)) {
+                    stats.recordBuffered(msg);
+                    return;
+                }
+                if (config.bufferSpill.equals("drop")) {
+                    stats.recordDropped();
+                    return;
+                }
+                // "block": wait for the COMMIT/ABORT flush to empty the queue
+                if (blockedSince == 0) blockedSince = System.nanoTime();
+                try {
+                    wait();
+                } catch(InterruptedException e) {
+                    return;
+                }
             }
+        } finally {
+            if (blockedSince != 0) stats.recordBlocked(System.nanoTime() - blockedSince);
         }
+        sendMessage(destId, msg);
+    }
+
+    // Called by the protocol once the decision is made
+    public synchronized void flushAppSends() {
+        for (Map.Entry<Integer, List<Message>> batch : sendBuffer.drain().entrySet()) {
+            long bytes = 0;
+            for (Message msg : batch.getValue()) bytes += AppSendBuffer.sizeOf(msg);
+            sendBatch(batch.getKey(), batch.getValue());
+            stats.recordFlushed(bytes);
+        }
+        notifyAll();
+    }
+
+    public boolean isActive() {
+        return active;
     }
 
     public static void main(String[] args) throws IOException {
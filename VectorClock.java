@@ -16,6 +16,12 @@ public class VectorClock implements Serializable {
         clock[myId]++;
     }
 
+    // Local send event: tick and snapshot atomically so the attached clock includes the tick
+    public synchronized int[] tickAndGet() {
+        clock[myId]++;
+        return Arrays.copyOf(clock, numNodes);
+    }
+
     public synchronized void update(int[] receivedClock) {
         if (receivedClock == null) return;
         for (int i = 0; i < numNodes; i++) {
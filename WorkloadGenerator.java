@@ -0,0 +1,141 @@
+import java.util.*;
+import java.util.concurrent.locks.LockSupport;
+
+public class WorkloadGenerator implements Runnable {
+    // Longest gap between two sends; keeps tiny rates from overflowing the schedule
+    private static final long MAX_INTERVAL_NANOS = 60_000_000_000L;
+
+    // Chooses the neighbor each APP_MSG is sent to
+    public interface DestinationPicker {
+        int next(Random rand);
+    }
+
+    private Node node;
+    private Config config;
+    private Random rand;
+    private List<Integer> neighbors;
+    private DestinationPicker picker;
+
+    public WorkloadGenerator(Node node) {
+        this.node = node;
+        this.config = node.config;
+        // Mix in the node id so seeded nodes do not all draw the same sequence
+        this.rand = (config.seed >= 0) ? new Random(config.seed * 31 + node.id) : new Random();
+        this.neighbors = config.neighbors.get(node.id);
+        if (neighbors != null && !neighbors.isEmpty()) {
+            this.picker = createPicker(config.destination);
+        }
+    }
+
+    @Override
+    public void run() {
+        if (picker == null) return;
+
+        Thread reporter = new Thread(this::report);
+        reporter.setDaemon(true);
+        reporter.start();
+
+        if (config.appRate <= 0) {
+            runLegacy();
+        } else {
+            runPaced();
+        }
+    }
+
+    // Original behavior: one message every 0.5-2.5s
+    private void runLegacy() {
+        while (node.isActive()) {
+            try { Thread.sleep(rand.nextInt(2000) + 500); } catch(Exception e){}
+            sendOne();
+        }
+    }
+
+    // Fixed-interval schedule at the target rate, multiplied during burst phases
+    private void runPaced() {
+        long start = System.nanoTime();
+        long nextSend = start;
+
+        while (node.isActive()) {
+            long now = System.nanoTime();
+            if (now < nextSend) {
+                LockSupport.parkNanos(nextSend - now);
+                continue;
+            }
+
+            sendOne();
+
+            double rate = config.appRate * burstMultiplier((now - start) / 1_000_000L);
+            nextSend += (long) Math.min(1_000_000_000.0 / rate, MAX_INTERVAL_NANOS);
+            // Do not try to catch up on a backlog larger than one second
+            if (now - nextSend > 1_000_000_000L) nextSend = now;
+        }
+    }
+
+    private double burstMultiplier(long elapsedMs) {
+        if (config.burstPeriodMs <= 0 || config.burstDurationMs <= 0) return 1.0;
+        // Each cycle starts with the burst phase, followed by the quiet phase
+        return (elapsedMs % config.burstPeriodMs) < config.burstDurationMs ? config.burstFactor : 1.0;
+    }
+
+    private void sendOne() {
+        int target = picker.next(rand);
+        Message msg = new Message(Message.Type.APP_MSG, node.id, null, null, 0);
+        if (config.payloadSize > 0) {
+            msg.data = new byte[config.payloadSize];
+            rand.nextBytes(msg.data);
+        }
+        msg.sendTime = System.currentTimeMillis();
+        node.sendAppMessage(target, msg);
+    }
+
+    private void report() {
+        if (config.reportIntervalMs <= 0) return;
+        while (node.isActive()) {
+            try { Thread.sleep(config.reportIntervalMs); } catch(Exception e){}
+            System.out.println(node.stats.report(node.id));
+        }
+    }
+
+    // --- DESTINATION DISTRIBUTIONS ---
+    private DestinationPicker createPicker(String type) {
+        switch (type) {
+            case "hotspot":
+                return hotspotPicker();
+            case "zipf":
+                return zipfPicker();
+            case "uniform":
+                return r -> neighbors.get(r.nextInt(neighbors.size()));
+            default:
+                System.err.println("Node " + node.id + " unknown destination '" + type + "', using uniform");
+                return r -> neighbors.get(r.nextInt(neighbors.size()));
+        }
+    }
+
+    private DestinationPicker hotspotPicker() {
+        int hot = neighbors.contains(config.hotspotNode) ? config.hotspotNode : neighbors.get(0);
+        List<Integer> others = new ArrayList<>(neighbors);
+        others.remove(Integer.valueOf(hot));
+        return r -> {
+            if (others.isEmpty() || r.nextDouble() < config.hotspotFraction) return hot;
+            return others.get(r.nextInt(others.size()));
+        };
+    }
+
+    private DestinationPicker zipfPicker() {
+        // Rank k (1-based, in neighbor-list order) has weight 1 / k^skew
+        double[] cumulative = new double[neighbors.size()];
+        double total = 0;
+        for (int k = 0; k < neighbors.size(); k++) {
+            total += 1.0 / Math.pow(k + 1, config.zipfSkew);
+            cumulative[k] = total;
+        }
+        double sum = total;
+        return r -> {
+            double x = r.nextDouble() * sum;
+            for (int k = 0; k < cumulative.length; k++) {
+                if (x < cumulative[k]) return neighbors.get(k);
+            }
+            return neighbors.get(neighbors.size() - 1);
+        };
+    }
+}
@@ -0,0 +1,101 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+public class WorkloadStats {
+    // Application traffic (cumulative)
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    // App-message latency for the current report interval
+    private long latencyCount = 0;
+    private long latencySum = 0;
+    private long latencyMax = 0;
+
+    // Checkpoint rounds (cumulative)
+    private long roundCount = 0;
+    private long roundSum = 0;
+    private long roundMax = 0;
+    private long roundLast = 0;
+
+    // Send buffering during the tentative checkpoint window (cumulative)
+    private long bufferedBytes = 0;
+    private long peakBufferedBytes = 0;
+    private long bufferedMsgs = 0;
+    private long flushes = 0;
+    private long dropped = 0;
+    private long blockedNanos = 0;
+
+    // Snapshot of the counters at the last report
+    private long lastReportTime = System.currentTimeMillis();
+    private long lastSent = 0;
+    private long lastReceived = 0;
+
+    public void recordSent(Message msg) {
+        sent.incrementAndGet();
+        if (msg.data != null) bytesSent.addAndGet(msg.data.length);
+    }
+
+    public void recordReceived(Message msg) {
+        received.incrementAndGet();
+        if (msg.sendTime > 0) {
+            // Wall-clock based: only meaningful when host clocks are synchronized
+            long latency = Math.max(0, System.currentTimeMillis() - msg.sendTime);
+            synchronized (this) {
+                latencyCount++;
+                latencySum += latency;
+                latencyMax = Math.max(latencyMax, latency);
+            }
+        }
+    }
+
+    public synchronized void recordCheckpointRound(long durationMs) {
+        roundCount++;
+        roundSum += durationMs;
+        roundMax = Math.max(roundMax, durationMs);
+        roundLast = durationMs;
+    }
+
+    public synchronized void recordBuffered(Message msg) {
+        bufferedMsgs++;
+        bufferedBytes += AppSendBuffer.sizeOf(msg);
+        peakBufferedBytes = Math.max(peakBufferedBytes, bufferedBytes);
+    }
+
+    public synchronized void recordFlushed(long bytes) {
+        flushes++;
+        bufferedBytes -= bytes;
+    }
+
+    public synchronized void recordDropped() {
+        dropped++;
+    }
+
+    public synchronized void recordBlocked(long nanos) {
+        blockedNanos += nanos;
+    }
+
+    // Builds one report line covering the interval since the previous call
+    public synchronized String report(int nodeId) {
+        long now = System.currentTimeMillis();
+        double seconds = Math.max(1, now - lastReportTime) / 1000.0;
+        long s = sent.get();
+        long r = received.get();
+
+        String line = String.format(
+            "Node %d STATS: sent=%d (%.1f msg/s, %d bytes) recv=%d (%.1f msg/s) " +
+            "appLatency avg=%.2fms max=%dms | ckptRounds=%d last=%dms avg=%.1fms max=%dms | " +
+            "buffered=%d msgs (%d bytes now, peak %d) flushes=%d dropped=%d blocked=%dms",
+            nodeId, s, (s - lastSent) / seconds, bytesSent.get(), r, (r - lastReceived) / seconds,
+            latencyCount == 0 ? 0.0 : (double) latencySum / latencyCount, latencyMax,
+            roundCount, roundLast, roundCount == 0 ? 0.0 : (double) roundSum / roundCount, roundMax,
+            bufferedMsgs, bufferedBytes, peakBufferedBytes, flushes, dropped, blockedNanos / 1_000_000L);
+
+        lastReportTime = now;
+        lastSent = s;
+        lastReceived = r;
+        latencyCount = 0;
+        latencySum = 0;
+        latencyMax = 0;
+        return line;
+    }
+}
@@ -28,7 +28,7 @@ for host in $hosts; do
 
         echo \"  - Removing Checkpoint outputs...\"
         # CHANGED: Matches Project 3 checkpoint files
-        rm -f ckpt_*.out temp_*.tmp 2>/dev/null
+        rm -f ckpt_*.out temp_*.tmp replica_*.out replica_*.tmp 2>/dev/null
 
         echo \"  - Removing class files...\"
         rm -f *.class 2>/dev/null
@@ -42,7 +42,7 @@ cd "$PROJDIR" || exit
 pkill -u "$USER" -f Node 2>/dev/null
 rm -f logs/node*.log logs/node*.pid 2>/dev/null
 # CHANGED: Local removal of Project 3 files
-rm -f ckpt_*.out temp_*.tmp *.class 2>/dev/null
+rm -f ckpt_*.out temp_*.tmp replica_*.out replica_*.tmp *.class 2>/dev/null
 echo "Local cleanup complete."
 
 echo "All nodes fully cleaned."
\ No newline at end of file